@@ -0,0 +1,607 @@
+/**
+ * Name: Manasvi Bhatnagar
+ *
+ **/
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.PriorityQueue;
+
+/**
+ * The CatalogSnapshot class saves a CourseManager to a compact binary file
+ * and opens it again without replaying every addCourse and
+ * addStudentToCourse call. The file is memory-mapped: the course catalog is
+ * decoded as soon as the snapshot is opened, while each course's enrolled
+ * and waitlist rosters are only decoded the first time that course is used.
+ *
+ * File layout (all numbers big-endian):
+ *   header:  int MAGIC, short VERSION
+ *   rosters: per course, int enrolledCount, enrolled students,
+ *            int waitlistCount, waitlisted students
+ *   index:   per course, code, title, int maxCapacity, byte hasWaitlist,
+ *            int waitlistCapacity, long rosterOffset
+ *   trailer: long indexOffset, int courseCount, int MAGIC
+ * A student is stored as name, byte year, byte honors, studentID, and a
+ * string as an unsigned short byte length followed by its UTF-8 bytes.
+ * Roster segments are stored in index order, so each one ends where the
+ * next course's begins, and the last one ends at the index.
+ */
+public class CatalogSnapshot {
+    private static final int MAGIC = 0x43535331; // "CSS1"
+    // Marks the start and end of a snapshot file.
+    private static final short VERSION = 1;
+    // The version of the file layout.
+    private static final int HEADER_SIZE = 6;
+    // Bytes taken by the magic number and version.
+    private static final int TRAILER_SIZE = 16;
+    // Bytes taken by the index offset, course count and magic number.
+    private static final int MIN_INDEX_ENTRY_SIZE = 21;
+    // Bytes taken by an index entry whose code and title are empty.
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Size of the buffer used when writing a snapshot.
+
+    private final ByteBuffer data;
+    // The mapped contents of the snapshot file.
+
+    /**
+     * Constructor used by open() to wrap the mapped file.
+     *
+     * @param data The mapped contents of the snapshot file.
+     */
+    private CatalogSnapshot(ByteBuffer data) {
+        this.data = data;
+    }
+
+    /**
+     * Writes a snapshot of the given CourseManager to a file, replacing
+     * the file if it already exists. The snapshot is written to a temporary
+     * file next to it and then moved into place, so a manager opened from
+     * the same file can still read its rosters while it is being saved.
+     * An existing file keeps its permissions.
+     *
+     * @param manager The CourseManager to save.
+     * @param file The file to write to.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(CourseManager manager, Path file)
+            throws IOException {
+        Path target = file.toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + "."
+                + System.nanoTime() + ".tmp");
+        try {
+            // Created like any new file, not with createTempFile's
+            // owner-only permissions.
+            try (FileChannel channel = FileChannel.open(temp,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                write(manager, channel);
+            }
+            if (Files.exists(target)) {
+                copyPermissions(target, temp);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Gives a file the same permissions as another. Does nothing on file
+     * systems without POSIX permissions.
+     *
+     * @param from The file to copy the permissions of.
+     * @param to The file to apply them to.
+     * @throws IOException If the permissions cannot be read or set.
+     */
+    private static void copyPermissions(Path from, Path to)
+            throws IOException {
+        try {
+            Files.setPosixFilePermissions(to,
+                    Files.getPosixFilePermissions(from));
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system; the temporary file keeps the defaults.
+        }
+    }
+
+    /**
+     * Writes a snapshot of the given CourseManager to a channel. The
+     * channel does not need to be seekable and is not closed.
+     *
+     * @param manager The CourseManager to save.
+     * @param channel The channel to write to.
+     * @throws IOException If the channel cannot be written.
+     */
+    public static void write(CourseManager manager,
+                             WritableByteChannel channel) throws IOException {
+        // A heap buffer is freed with the encoder; use RosterExporter to
+        // reuse one buffer across repeated snapshots.
+        write(manager, new ChannelEncoder(
+                ByteBuffer.allocate(BUFFER_SIZE), channel));
+    }
+
+    /**
+     * Writes a snapshot of the given CourseManager through an encoder and
+     * flushes it. Lets callers such as RosterExporter reuse their buffer.
+     *
+     * @param manager The CourseManager to save.
+     * @param encoder The encoder to write with.
+     * @throws IOException If the channel cannot be written.
+     */
+    static void write(CourseManager manager, ChannelEncoder encoder)
+            throws IOException {
+        int courseCount = manager.getCourseCount();
+        long[] rosterOffsets = new long[courseCount];
+        long start = encoder.position();
+
+        encoder.putInt(MAGIC);
+        encoder.putShort(VERSION);
+        for (int i = 0; i < courseCount; i++) {
+            rosterOffsets[i] = encoder.position() - start;
+            RosterCursor unloaded = manager.getUnloadedRosterAt(i);
+            if (unloaded != null) {
+                // Still in the mapping: copy it instead of decoding it.
+                unloaded.copyTo(encoder);
+                continue;
+            }
+            PriorityQueue<StudentInfo> enrolled = manager.getEnrolledAt(i);
+            PriorityQueue<StudentInfo> waitlist = manager.getWaitlistAt(i);
+            encoder.putInt(enrolled.size());
+            for (StudentInfo student : enrolled) {
+                putStudent(encoder, student);
+            }
+            encoder.putInt(waitlist.size());
+            for (StudentInfo student : waitlist) {
+                putStudent(encoder, student);
+            }
+        }
+
+        long indexOffset = encoder.position() - start;
+        for (int i = 0; i < courseCount; i++) {
+            Course course = manager.getCourseAt(i);
+            putString(encoder, course.getCourseCode());
+            putString(encoder, course.getTitle());
+            encoder.putInt(course.getMaxCapacity());
+            encoder.putByte(course.isHasWaitlist() ? 1 : 0);
+            encoder.putInt(course.getWaitlistCapacity());
+            encoder.putLong(rosterOffsets[i]);
+        }
+
+        encoder.putLong(indexOffset);
+        encoder.putInt(courseCount);
+        encoder.putInt(MAGIC);
+        encoder.flush();
+    }
+
+    /**
+     * Opens a snapshot file. The returned CourseManager publishes to a new
+     * EnrollmentEventFeed.
+     *
+     * @param file The snapshot file.
+     * @return A CourseManager holding the saved courses.
+     * @throws IOException If the file cannot be read or is not a snapshot.
+     */
+    public static CourseManager open(Path file) throws IOException {
+        return open(file, new EnrollmentEventFeed());
+    }
+
+    /**
+     * Opens a snapshot file. Only the course index is decoded here; the
+     * rosters of each course are decoded the first time it is used.
+     *
+     * @param file The snapshot file.
+     * @param eventFeed The feed the returned CourseManager publishes to.
+     * @return A CourseManager holding the saved courses.
+     * @throws IOException If the file cannot be read or is not a snapshot.
+     */
+    public static CourseManager open(Path file, EnrollmentEventFeed eventFeed)
+            throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE) {
+                throw new IOException("File is too small to be a snapshot.");
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is too large to map.");
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        CatalogSnapshot snapshot = new CatalogSnapshot(mapped);
+        ByteBuffer data = mapped.duplicate();
+
+        if (data.getInt(0) != MAGIC || data.getInt(data.limit() - 4) != MAGIC) {
+            throw new IOException("File is not a catalog snapshot.");
+        }
+        if (data.getShort(4) != VERSION) {
+            throw new IOException("Unsupported snapshot version.");
+        }
+        int trailer = data.limit() - TRAILER_SIZE;
+        long indexOffset = data.getLong(trailer);
+        int courseCount = data.getInt(trailer + 8);
+        if (indexOffset < HEADER_SIZE || indexOffset > trailer
+                || courseCount < 0
+                || courseCount > (trailer - indexOffset) / MIN_INDEX_ENTRY_SIZE) {
+            throw new IOException("Snapshot index is corrupt.");
+        }
+
+        Course[] courses = new Course[courseCount];
+        long[] rosterOffsets = new long[courseCount + 1];
+        rosterOffsets[courseCount] = indexOffset;
+        data.position((int) indexOffset);
+        data.limit(trailer);
+        try {
+            long previous = HEADER_SIZE - 1;
+            for (int i = 0; i < courseCount; i++) {
+                String courseCode = getString(data);
+                String title = getString(data);
+                int maxCapacity = data.getInt();
+                boolean hasWaitlist = data.get() != 0;
+                int waitlistCapacity = data.getInt();
+                rosterOffsets[i] = data.getLong();
+                if (rosterOffsets[i] <= previous
+                        || rosterOffsets[i] >= indexOffset) {
+                    throw new IOException("Snapshot index is corrupt.");
+                }
+                previous = rosterOffsets[i];
+                courses[i] = new Course(courseCode, title, maxCapacity,
+                        hasWaitlist, waitlistCapacity);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Snapshot index is corrupt.", e);
+        }
+
+        CourseManager manager = new CourseManager(eventFeed);
+        manager.reserveCourses(courseCount);
+        for (int i = 0; i < courseCount; i++) {
+            manager.addSnapshotCourse(courses[i], snapshot, rosterOffsets[i],
+                    (int) (rosterOffsets[i + 1] - rosterOffsets[i]));
+        }
+        return manager;
+    }
+
+    /**
+     * Decodes the rosters of one course into the given queues. Called by
+     * the CourseManager the first time the course is used. Students were
+     * saved in each queue's internal order, which is already a valid heap,
+     * so offering them back in that order rebuilds the same queues.
+     *
+     * @param rosterOffset Where the course's rosters start in the file.
+     * @param rosterLength The number of bytes the rosters take.
+     * @param enrolled The queue to fill with enrolled students.
+     * @param waitlist The queue to fill with waitlisted students.
+     * @throws IOException If the roster data is corrupt. Nothing is added
+     *                     to the queues in that case.
+     */
+    void readRosters(long rosterOffset, int rosterLength,
+                     PriorityQueue<StudentInfo> enrolled,
+                     PriorityQueue<StudentInfo> waitlist) throws IOException {
+        RosterCursor cursor = openRoster(rosterOffset, rosterLength);
+        while (cursor.next()) {
+            StudentInfo student = new StudentInfo(cursor.getName(),
+                    cursor.getYear(), cursor.isHonors(),
+                    cursor.getStudentID());
+            if (cursor.isWaitlisted()) {
+                waitlist.offer(student);
+            } else {
+                enrolled.offer(student);
+            }
+        }
+    }
+
+    /**
+     * Checks one course's roster segment and returns a cursor over it.
+     *
+     * @param rosterOffset Where the course's rosters start in the file.
+     * @param rosterLength The number of bytes the rosters take.
+     * @return A cursor positioned before the first student.
+     * @throws IOException If the roster data is corrupt.
+     */
+    RosterCursor openRoster(long rosterOffset, int rosterLength)
+            throws IOException {
+        return new RosterCursor(data, rosterOffset, rosterLength);
+    }
+
+    /**
+     * Decodes a length-prefixed UTF-8 string.
+     *
+     * @param data The buffer positioned at the length.
+     * @return The decoded string.
+     */
+    private static String getString(ByteBuffer data) {
+        int length = Short.toUnsignedInt(data.getShort());
+        byte[] bytes = new byte[length];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes a student.
+     */
+    private static void putStudent(ChannelEncoder encoder,
+                                   StudentInfo student) throws IOException {
+        putString(encoder, student.getName());
+        encoder.putByte(student.getYear());
+        encoder.putByte(student.isHonors() ? 1 : 0);
+        putString(encoder, student.getStudentID());
+    }
+
+    /**
+     * Encodes a length-prefixed UTF-8 string.
+     *
+     * @throws IOException If the string is longer than 65535 bytes.
+     */
+    private static void putString(ChannelEncoder encoder, String value)
+            throws IOException {
+        int length = ChannelEncoder.utf8Length(value);
+        if (length > 0xFFFF) {
+            throw new IOException("String is too long for a snapshot.");
+        }
+        encoder.putShort(length);
+        encoder.putUtf8(value);
+    }
+
+    /**
+     * Walks the students of one course's roster segment, enrolled students
+     * first and then the waitlist, without creating objects per student.
+     * Reading is limited to the segment, and the whole segment is checked
+     * when the cursor is created.
+     */
+    static class RosterCursor {
+        private final ByteBuffer segment;
+        // The mapped file, limited to this course's rosters.
+        private final int segmentStart;
+        // Where the segment starts in the file.
+        private final int enrolledCount;
+        // Number of enrolled students in the segment.
+        private final int waitlistCount;
+        // Number of waitlisted students in the segment.
+        private int remaining;
+        // Students left in the list currently being walked.
+        private boolean waitlisted;
+        // True once the cursor has moved on to the waitlist.
+        private int nameOffset;
+        // Where the current student's UTF-8 name starts in the file.
+        private int nameLength;
+        // Length of the current student's name in bytes.
+        private int year;
+        // The current student's year.
+        private boolean isHonors;
+        // Whether the current student is in honors.
+        private int idOffset;
+        // Where the current student's UTF-8 ID starts in the file.
+        private int idLength;
+        // Length of the current student's ID in bytes.
+
+        /**
+         * Constructor to create a cursor over a roster segment.
+         *
+         * @param data The mapped contents of the snapshot file.
+         * @param rosterOffset Where the segment starts.
+         * @param rosterLength The number of bytes the segment takes.
+         * @throws IOException If the segment is corrupt.
+         */
+        RosterCursor(ByteBuffer data, long rosterOffset, int rosterLength)
+                throws IOException {
+            segment = data.duplicate();
+            segmentStart = (int) rosterOffset;
+            try {
+                segment.limit((int) (rosterOffset + rosterLength));
+                segment.position((int) rosterOffset);
+                enrolledCount = skipStudents();
+                waitlistCount = skipStudents();
+                if (segment.hasRemaining()) {
+                    throw new IOException("Snapshot roster is corrupt.");
+                }
+                segment.position((int) rosterOffset + 4);
+            } catch (RuntimeException e) {
+                throw new IOException("Snapshot roster is corrupt.", e);
+            }
+            remaining = enrolledCount;
+            waitlisted = false;
+        }
+
+        /**
+         * Reads a student count and skips that many students, checking
+         * each one fits in the segment and has a valid year.
+         *
+         * @return The student count.
+         * @throws IOException If the count or a student is corrupt.
+         */
+        private int skipStudents() throws IOException {
+            int count = segment.getInt();
+            if (count < 0) {
+                throw new IOException("Snapshot roster is corrupt.");
+            }
+            for (int i = 0; i < count; i++) {
+                skipString();
+                int year = segment.get();
+                segment.get();
+                skipString();
+                if (year < 1 || year > 4) {
+                    throw new IOException("Snapshot roster is corrupt.");
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Skips a length-prefixed string.
+         */
+        private void skipString() {
+            int length = Short.toUnsignedInt(segment.getShort());
+            segment.position(segment.position() + length);
+        }
+
+        /**
+         * Moves to the next student.
+         *
+         * @return True if there is another student, false at the end.
+         */
+        boolean next() {
+            if (remaining == 0 && !waitlisted) {
+                segment.position(segment.position() + 4);
+                remaining = waitlistCount;
+                waitlisted = true;
+            }
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            nameLength = Short.toUnsignedInt(segment.getShort());
+            nameOffset = segment.position();
+            segment.position(nameOffset + nameLength);
+            year = segment.get();
+            isHonors = segment.get() != 0;
+            idLength = Short.toUnsignedInt(segment.getShort());
+            idOffset = segment.position();
+            segment.position(idOffset + idLength);
+            return true;
+        }
+
+        /**
+         * Gets the number of enrolled students in the segment.
+         *
+         * @return The enrolled count.
+         */
+        int getEnrolledCount() {
+            return enrolledCount;
+        }
+
+        /**
+         * Gets the number of waitlisted students in the segment.
+         *
+         * @return The waitlist count.
+         */
+        int getWaitlistCount() {
+            return waitlistCount;
+        }
+
+        /**
+         * Checks if the current student is on the waitlist.
+         *
+         * @return True for a waitlisted student, false for an enrolled one.
+         */
+        boolean isWaitlisted() {
+            return waitlisted;
+        }
+
+        /**
+         * Gets the current student's year.
+         *
+         * @return The year (1-4).
+         */
+        int getYear() {
+            return year;
+        }
+
+        /**
+         * Checks if the current student is in honors.
+         *
+         * @return True if the student is in honors, false otherwise.
+         */
+        boolean isHonors() {
+            return isHonors;
+        }
+
+        /**
+         * Gets the mapped file the offsets below refer to.
+         *
+         * @return The mapped file, limited to this segment.
+         */
+        ByteBuffer getData() {
+            return segment;
+        }
+
+        /**
+         * Gets where the current student's UTF-8 name starts in the file.
+         *
+         * @return The offset of the name.
+         */
+        int getNameOffset() {
+            return nameOffset;
+        }
+
+        /**
+         * Gets the length of the current student's name in bytes.
+         *
+         * @return The length of the name.
+         */
+        int getNameLength() {
+            return nameLength;
+        }
+
+        /**
+         * Gets where the current student's UTF-8 ID starts in the file.
+         *
+         * @return The offset of the student ID.
+         */
+        int getStudentIDOffset() {
+            return idOffset;
+        }
+
+        /**
+         * Gets the length of the current student's ID in bytes.
+         *
+         * @return The length of the student ID.
+         */
+        int getStudentIDLength() {
+            return idLength;
+        }
+
+        /**
+         * Copies the whole segment, unchanged, through an encoder. The
+         * cursor's position is not affected.
+         *
+         * @param encoder The encoder to write with.
+         * @throws IOException If the channel cannot be written.
+         */
+        void copyTo(ChannelEncoder encoder) throws IOException {
+            encoder.putBytes(segment, segmentStart,
+                    segment.limit() - segmentStart);
+        }
+
+        /**
+         * Decodes the current student's name.
+         *
+         * @return The name.
+         */
+        String getName() {
+            return decode(nameOffset, nameLength);
+        }
+
+        /**
+         * Decodes the current student's ID.
+         *
+         * @return The student ID.
+         */
+        String getStudentID() {
+            return decode(idOffset, idLength);
+        }
+
+        /**
+         * Decodes UTF-8 bytes from the segment.
+         *
+         * @param offset Where the bytes start in the file.
+         * @param length The number of bytes.
+         * @return The decoded string.
+         */
+        private String decode(int offset, int length) {
+            byte[] bytes = new byte[length];
+            segment.get(offset, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
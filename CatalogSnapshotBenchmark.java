@@ -0,0 +1,90 @@
+/**
+ * Name: Manasvi Bhatnagar
+ *
+ **/
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The CatalogSnapshotBenchmark class compares the time to serve the first
+ * request after startup when the term is rebuilt by replaying addCourse and
+ * addStudentToCourse calls, against opening a CatalogSnapshot.
+ *
+ * Usage: java CatalogSnapshotBenchmark [courses] [studentsPerCourse] [runs]
+ */
+public class CatalogSnapshotBenchmark {
+    /**
+     * Main method that runs the benchmark and prints the median times.
+     */
+    public static void main(String[] args) throws Exception {
+        int courses = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int studentsPerCourse = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        String firstCourse = courseCode(courses / 2);
+
+        Path file = Files.createTempFile("catalog", ".snapshot");
+        file.toFile().deleteOnExit();
+        PrintStream console = System.out;
+        // Replay prints a line per enrollment; keep that out of the timing.
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            CatalogSnapshot.write(replay(courses, studentsPerCourse), file);
+
+            long[] replayTimes = new long[runs];
+            long[] snapshotTimes = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                long start = System.nanoTime();
+                replay(courses, studentsPerCourse).peekFrontStudent(firstCourse);
+                replayTimes[run] = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                CatalogSnapshot.open(file).peekFrontStudent(firstCourse);
+                snapshotTimes[run] = System.nanoTime() - start;
+            }
+
+            console.println("Courses: " + courses + ", students per course: "
+                    + studentsPerCourse + ", snapshot size: "
+                    + Files.size(file) + " bytes");
+            console.println("Replay to first request:   "
+                    + medianMillis(replayTimes) + " ms");
+            console.println("Snapshot to first request: "
+                    + medianMillis(snapshotTimes) + " ms");
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    /**
+     * Builds a term the slow way, one call at a time. Capacities leave room
+     * for a waitlist of about a quarter of the students.
+     */
+    private static CourseManager replay(int courses, int studentsPerCourse)
+            throws Exception {
+        CourseManager manager = new CourseManager();
+        int maxCapacity = Math.max(1, studentsPerCourse * 3 / 4);
+        int waitlistCapacity = Math.max(1, studentsPerCourse - maxCapacity);
+        for (int c = 0; c < courses; c++) {
+            String code = courseCode(c);
+            manager.addCourse(new Course(code, "Course " + c, maxCapacity,
+                    true, waitlistCapacity));
+            for (int s = 0; s < studentsPerCourse; s++) {
+                manager.addStudentToCourse(new StudentInfo("Student " + s,
+                        1 + (c + s) % 4, (c + s) % 3 == 0, "S" + s), code);
+            }
+        }
+        return manager;
+    }
+
+    private static String courseCode(int index) {
+        return "CSE " + index;
+    }
+
+    private static double medianMillis(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2] / 1_000_000.0;
+    }
+}
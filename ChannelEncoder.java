@@ -0,0 +1,351 @@
+/**
+ * Name: Manasvi Bhatnagar
+ *
+ **/
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * The ChannelEncoder class encodes numbers and text into a reusable
+ * ByteBuffer and writes the buffer to a channel whenever it fills up.
+ * Text is encoded as UTF-8 one character at a time, so writing a String
+ * never creates a byte array or any other garbage.
+ */
+public class ChannelEncoder {
+    private static final int MAX_CHAR_BYTES = 4;
+    // The most bytes a single character can take in UTF-8.
+    private static final int MAX_LONG_DIGITS = 20;
+    // The most characters a long takes in decimal, including the sign.
+
+    private final ByteBuffer buffer;
+    // Holds encoded bytes until they are written to the channel.
+    private final WritableByteChannel channel;
+    // Where the encoded bytes go.
+    private long flushed;
+    // Number of bytes already written to the channel.
+
+    /**
+     * Constructor to create a ChannelEncoder. The buffer is cleared and
+     * reused; it is never reallocated.
+     *
+     * @param buffer The buffer to encode into. Must hold at least 20 bytes.
+     * @param channel The channel to write to. It is not closed.
+     * @throws IllegalArgumentException If the buffer is too small.
+     */
+    public ChannelEncoder(ByteBuffer buffer, WritableByteChannel channel) {
+        if (buffer.capacity() < MAX_LONG_DIGITS) {
+            throw new IllegalArgumentException("Buffer is too small.");
+        }
+        this.buffer = buffer;
+        this.channel = channel;
+        this.flushed = 0;
+        buffer.clear();
+    }
+
+    /**
+     * Gets the number of bytes encoded so far, written or still buffered.
+     *
+     * @return The current position in the output.
+     */
+    public long position() {
+        return flushed + buffer.position();
+    }
+
+    /**
+     * Encodes a single byte.
+     *
+     * @param value The byte to encode; only the low 8 bits are used.
+     * @throws IOException If the channel cannot be written.
+     */
+    public void putByte(int value) throws IOException {
+        ensureSpace(1);
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Encodes a big-endian short.
+     *
+     * @param value The short to encode; only the low 16 bits are used.
+     * @throws IOException If the channel cannot be written.
+     */
+    public void putShort(int value) throws IOException {
+        ensureSpace(2);
+        buffer.putShort((short) value);
+    }
+
+    /**
+     * Encodes a big-endian int.
+     *
+     * @param value The int to encode.
+     * @throws IOException If the channel cannot be written.
+     */
+    public void putInt(int value) throws IOException {
+        ensureSpace(4);
+        buffer.putInt(value);
+    }
+
+    /**
+     * Encodes a big-endian long.
+     *
+     * @param value The long to encode.
+     * @throws IOException If the channel cannot be written.
+     */
+    public void putLong(long value) throws IOException {
+        ensureSpace(8);
+        buffer.putLong(value);
+    }
+
+    /**
+     * Encodes a number as decimal ASCII digits, with a leading '-' if it
+     * is negative.
+     *
+     * @param value The number to encode.
+     * @throws IOException If the channel cannot be written.
+     */
+    public void putDecimal(long value) throws IOException {
+        ensureSpace(MAX_LONG_DIGITS);
+        if (value < 0) {
+            buffer.put((byte) '-');
+        } else {
+            value = -value;
+        }
+        // Digits are produced from the negative value so that
+        // Long.MIN_VALUE does not overflow.
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        int end = buffer.position() + digits;
+        for (int i = end - 1; i >= end - digits; i--) {
+            buffer.put(i, (byte) ('0' - value % 10));
+            value /= 10;
+        }
+        buffer.position(end);
+    }
+
+    /**
+     * Encodes a string as UTF-8. Unpaired surrogates are written as '?',
+     * the same as String.getBytes does.
+     *
+     * @param value The string to encode.
+     * @throws IOException If the channel cannot be written.
+     */
+    public void putUtf8(String value) throws IOException {
+        putUtf8(value, 0, value.length());
+    }
+
+    /**
+     * Encodes the characters of a string from start up to end as UTF-8.
+     * Used by putCsvField so quoted fields can be written without building
+     * an escaped copy.
+     *
+     * @param value The string to encode.
+     * @param start The index of the first character to encode.
+     * @param end The index after the last character to encode.
+     * @throws IOException If the channel cannot be written.
+     */
+    private void putUtf8(String value, int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                buffer.put((byte) c);
+                continue;
+            }
+            ensureSpace(MAX_CHAR_BYTES);
+            if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                char low = i + 1 < end ? value.charAt(i + 1) : 0;
+                if (Character.isHighSurrogate(c)
+                        && Character.isLowSurrogate(low)) {
+                    int codePoint = Character.toCodePoint(c, low);
+                    buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                    i++;
+                } else {
+                    buffer.put((byte) '?');
+                }
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * Encodes a string as a CSV field. The field is quoted, with quotes
+     * doubled, only if it contains a comma, quote or line break.
+     *
+     * @param value The field to encode.
+     * @throws IOException If the channel cannot be written.
+     */
+    public void putCsvField(String value) throws IOException {
+        if (!needsQuoting(value)) {
+            putUtf8(value);
+            return;
+        }
+        putByte('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                putUtf8(value, start, i + 1);
+                putByte('"');
+                start = i + 1;
+            }
+        }
+        putUtf8(value, start, value.length());
+        putByte('"');
+    }
+
+    /**
+     * Copies bytes from another buffer, such as a mapped snapshot, without
+     * changing that buffer's position.
+     *
+     * @param source The buffer to copy from.
+     * @param offset The index of the first byte to copy.
+     * @param length The number of bytes to copy.
+     * @throws IOException If the channel cannot be written.
+     */
+    public void putBytes(ByteBuffer source, int offset, int length)
+            throws IOException {
+        while (length > 0) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int chunk = Math.min(length, buffer.remaining());
+            buffer.put(buffer.position(), source, offset, chunk);
+            buffer.position(buffer.position() + chunk);
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Encodes UTF-8 bytes from another buffer as a CSV field, quoting it
+     * the same way as putCsvField(String). The bytes are copied as they
+     * are; the quote, comma and line break characters are all single
+     * bytes in UTF-8, so they can be found without decoding.
+     *
+     * @param source The buffer holding the UTF-8 bytes.
+     * @param offset The index of the first byte of the field.
+     * @param length The number of bytes in the field.
+     * @throws IOException If the channel cannot be written.
+     */
+    public void putCsvField(ByteBuffer source, int offset, int length)
+            throws IOException {
+        int end = offset + length;
+        if (!needsQuoting(source, offset, end)) {
+            putBytes(source, offset, length);
+            return;
+        }
+        putByte('"');
+        int start = offset;
+        for (int i = offset; i < end; i++) {
+            if (source.get(i) == '"') {
+                putBytes(source, start, i + 1 - start);
+                putByte('"');
+                start = i + 1;
+            }
+        }
+        putBytes(source, start, end - start);
+        putByte('"');
+    }
+
+    /**
+     * Writes everything buffered so far to the channel.
+     *
+     * @throws IOException If the channel cannot be written.
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        flushed += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Counts the bytes a string takes in UTF-8, matching putUtf8.
+     *
+     * @param value The string to measure.
+     * @return The encoded length in bytes.
+     */
+    public static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes += 1;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Checks if a string must be quoted to be a CSV field.
+     *
+     * @param value The field to check.
+     * @return True if it contains a comma, quote or line break.
+     */
+    private static boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if UTF-8 bytes must be quoted to be a CSV field.
+     *
+     * @param source The buffer holding the bytes.
+     * @param start The index of the first byte of the field.
+     * @param end The index after the last byte of the field.
+     * @return True if they contain a comma, quote or line break.
+     */
+    private static boolean needsQuoting(ByteBuffer source, int start,
+                                        int end) {
+        for (int i = start; i < end; i++) {
+            byte b = source.get(i);
+            if (b == ',' || b == '"' || b == '\n' || b == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Flushes the buffer if it does not have room for the given number of
+     * bytes.
+     *
+     * @param bytes The number of bytes about to be encoded.
+     * @throws IOException If the channel cannot be written.
+     */
+    private void ensureSpace(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+}
@@ -2,6 +2,7 @@
  * Name: Manasvi Bhatnagar
  *
  **/
+import java.io.IOException;
 import java.util.PriorityQueue;
 
 /**
@@ -16,14 +17,47 @@ public class CourseManager {
     // Array holding course data.
     private int courseCount;
     // The number of courses currently added.
+    private EnrollmentEventFeed eventFeed;
+    // Publishes enrollment changes to subscribed listeners.
 
     /**
      * Constructor to initialize the CourseManager.
      * Initializes the course array and course count.
      */
     public CourseManager() {
+        this(new EnrollmentEventFeed());
+    }
+
+    /**
+     * Constructor to initialize the CourseManager with the given event feed.
+     *
+     * @param eventFeed The feed that enrollment changes are published to.
+     */
+    public CourseManager(EnrollmentEventFeed eventFeed) {
         courseArray = new CourseContainer[MAX_COURSES];
         courseCount = 0;
+        this.eventFeed = eventFeed;
+    }
+
+    /**
+     * Gets the feed that enrollment changes are published to.
+     *
+     * @return The event feed.
+     */
+    public EnrollmentEventFeed getEventFeed() {
+        return eventFeed;
+    }
+
+    /**
+     * Subscribes a listener to enrollment changes using the feed's
+     * default buffer size, batch size and overflow policy.
+     *
+     * @param listener The listener to be notified.
+     * @return The subscription, which can be used to unsubscribe.
+     */
+    public EnrollmentEventFeed.Subscription subscribe(
+            EnrollmentListener listener) {
+        return eventFeed.subscribe(listener);
     }
 
     /**
@@ -49,6 +83,45 @@ public class CourseManager {
         }
         courseArray[courseCount++] = new CourseContainer(course,
                 new PriorityQueue<>(), new PriorityQueue<>());
+        eventFeed.publish(EnrollmentEvent.Type.COURSE_ADDED,
+                course.getCourseCode(), null);
+    }
+
+    /**
+     * Adds a course saved in a CatalogSnapshot. The course's rosters stay
+     * in the snapshot until the course is first used. Skips the duplicate
+     * check because the snapshot was written from a valid CourseManager.
+     *
+     * @param course The Course object to be added.
+     * @param snapshot The snapshot holding the course's rosters.
+     * @param rosterOffset Where the course's rosters start in the snapshot.
+     * @param rosterLength The number of bytes the rosters take.
+     */
+    void addSnapshotCourse(Course course, CatalogSnapshot snapshot,
+                           long rosterOffset, int rosterLength) {
+        if (courseCount == courseArray.length) {
+            resizeArray();
+        }
+        CourseContainer container = new CourseContainer(course,
+                new PriorityQueue<>(), new PriorityQueue<>());
+        container.snapshot = snapshot;
+        container.rosterOffset = rosterOffset;
+        container.rosterLength = rosterLength;
+        courseArray[courseCount++] = container;
+    }
+
+    /**
+     * Grows the course array, if needed, so it can hold the given number
+     * of courses without resizing.
+     *
+     * @param capacity The number of courses to make room for.
+     */
+    void reserveCourses(int capacity) {
+        if (capacity > courseArray.length) {
+            CourseContainer[] newArray = new CourseContainer[capacity];
+            System.arraycopy(courseArray, 0, newArray, 0, courseCount);
+            courseArray = newArray;
+        }
     }
 
     /**
@@ -89,11 +162,15 @@ public class CourseManager {
         if (container.enrolledStudents.size()
                 < container.course.getMaxCapacity()) {
             container.enrolledStudents.offer(student);
+            eventFeed.publish(EnrollmentEvent.Type.ENROLLED,
+                    courseCode, student);
             System.out.println("Student successfully enrolled.");
         } else if (container.course.isHasWaitlist()) {
             if (container.waitlist.size() <
                     container.course.getWaitlistCapacity()) {
                 container.waitlist.offer(student);
+                eventFeed.publish(EnrollmentEvent.Type.WAITLISTED,
+                        courseCode, student);
                 System.out.println
                         ("Course is full. Student has been waitlisted.");
             } else {
@@ -134,8 +211,12 @@ public class CourseManager {
             throw new Exception("No students to remove.");
         }
         StudentInfo removed = container.enrolledStudents.poll();
+        eventFeed.publish(EnrollmentEvent.Type.DROPPED, courseCode, removed);
         if (!container.waitlist.isEmpty()) {
-            container.enrolledStudents.offer(container.waitlist.poll());
+            StudentInfo promoted = container.waitlist.poll();
+            container.enrolledStudents.offer(promoted);
+            eventFeed.publish(EnrollmentEvent.Type.PROMOTED,
+                    courseCode, promoted);
         }
         return removed;
     }
@@ -162,6 +243,8 @@ public class CourseManager {
         }
         courseArray[index] = courseArray[--courseCount];
         courseArray[courseCount] = null;
+        eventFeed.publish(EnrollmentEvent.Type.COURSE_REMOVED,
+                courseCode, null);
         System.out.println("Course " + courseCode + " removed successfully.");
     }
 
@@ -172,6 +255,13 @@ public class CourseManager {
         for (int i = 0; i < courseCount; i++) {
             System.out.println("Enrollments for Course Code: "
                     + courseArray[i].course.getCourseCode());
+            try {
+                courseArray[i].loadRosters();
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+                System.out.println();
+                continue;
+            }
             if (courseArray[i].enrolledStudents.isEmpty() &&
                     courseArray[i].waitlist.isEmpty()) {
                 System.out.println("No enrollments for this course.");
@@ -230,7 +320,7 @@ public class CourseManager {
      * @param courseCode The course code.
      * @return The index of the course in the course array, or -1 if not found.
      */
-    private int findCourseIndex(String courseCode) {
+    int findCourseIndex(String courseCode) {
         for (int i = 0; i < courseCount; i++) {
             if (courseArray[i].course.getCourseCode().equals(courseCode)) {
                 return i;
@@ -244,16 +334,78 @@ public class CourseManager {
      *
      * @param courseCode The course code.
      * @return The CourseContainer for the course.
-     * @throws Exception If the course is not found.
+     * @throws Exception If the course is not found or its rosters cannot
+     *                   be loaded from a snapshot.
      */
     private CourseContainer findCourse(String courseCode) throws Exception {
         int index = findCourseIndex(courseCode);
         if (index == -1) {
             throw new Exception("Course not found.");
         }
+        try {
+            courseArray[index].loadRosters();
+        } catch (IOException e) {
+            throw new Exception(e.getMessage());
+        }
         return courseArray[index];
     }
 
+    /**
+     * Gets the course at a position in the course array.
+     *
+     * @param index The position, from 0 to getCourseCount() - 1.
+     * @return The course.
+     */
+    Course getCourseAt(int index) {
+        return courseArray[index].course;
+    }
+
+    /**
+     * Gets the enrolled students of the course at a position in the
+     * course array.
+     *
+     * @param index The position, from 0 to getCourseCount() - 1.
+     * @return The priority queue of enrolled students.
+     * @throws IOException If the rosters cannot be loaded from a snapshot.
+     */
+    PriorityQueue<StudentInfo> getEnrolledAt(int index) throws IOException {
+        courseArray[index].loadRosters();
+        return courseArray[index].enrolledStudents;
+    }
+
+    /**
+     * Gets the waitlisted students of the course at a position in the
+     * course array.
+     *
+     * @param index The position, from 0 to getCourseCount() - 1.
+     * @return The priority queue of waitlisted students.
+     * @throws IOException If the rosters cannot be loaded from a snapshot.
+     */
+    PriorityQueue<StudentInfo> getWaitlistAt(int index) throws IOException {
+        courseArray[index].loadRosters();
+        return courseArray[index].waitlist;
+    }
+
+    /**
+     * Gets a cursor over the rosters of the course at a position in the
+     * course array, if they have not been loaded from its snapshot yet.
+     * Lets exports read them without keeping them in memory.
+     *
+     * @param index The position, from 0 to getCourseCount() - 1.
+     * @return A cursor over the snapshot rosters, or null if the rosters
+     *         are already loaded (or the course is not from a snapshot).
+     * @throws IOException If the roster data is corrupt.
+     */
+    CatalogSnapshot.RosterCursor getUnloadedRosterAt(int index)
+            throws IOException {
+        CourseContainer container = courseArray[index];
+        if (container.snapshot == null) {
+            return null;
+        }
+        return container.snapshot.openRoster(container.rosterOffset,
+                container.rosterLength);
+    }
+
     /**
      * Inner class to store course info and enrolled students and waitlist.
      */
@@ -263,6 +415,12 @@ public class CourseManager {
         // Priority queue for enrolled students.
         PriorityQueue<StudentInfo> waitlist;
         // Priority queue for waitlisted students.
+        CatalogSnapshot snapshot;
+        // Snapshot still holding the rosters, or null once they are loaded.
+        long rosterOffset;
+        // Where the rosters start in the snapshot.
+        int rosterLength;
+        // The number of bytes the rosters take in the snapshot.
 
         CourseContainer(Course course,PriorityQueue<StudentInfo> enrolledStudents
                 ,PriorityQueue<StudentInfo> waitlist) {
@@ -270,6 +428,26 @@ public class CourseManager {
             this.enrolledStudents = enrolledStudents;
             this.waitlist = waitlist;
         }
+
+        /**
+         * Decodes the rosters from the snapshot the first time they are
+         * needed. Does nothing for courses that were not loaded from one.
+         * The rosters are only replaced once the whole segment has been
+         * decoded, so a corrupt segment leaves the course unchanged.
+         *
+         * @throws IOException If the roster data is corrupt.
+         */
+        void loadRosters() throws IOException {
+            if (snapshot != null) {
+                PriorityQueue<StudentInfo> loadedEnrolled = new PriorityQueue<>();
+                PriorityQueue<StudentInfo> loadedWaitlist = new PriorityQueue<>();
+                snapshot.readRosters(rosterOffset, rosterLength,
+                        loadedEnrolled, loadedWaitlist);
+                enrolledStudents = loadedEnrolled;
+                waitlist = loadedWaitlist;
+                snapshot = null;
+            }
+        }
     }
 
     /**
@@ -0,0 +1,93 @@
+/**
+ * Name: Manasvi Bhatnagar
+ * The EnrollmentEvent class describes a single change made by the
+ * CourseManager, such as a course being added or a student being
+ * enrolled, waitlisted, dropped or promoted from the waitlist.
+ */
+public class EnrollmentEvent {
+    /**
+     * The kinds of changes published by the CourseManager.
+     */
+    public enum Type {
+        COURSE_ADDED,   // A new course was added to the system.
+        COURSE_REMOVED, // A course was removed from the system.
+        ENROLLED,       // A student was enrolled directly in a course.
+        WAITLISTED,     // A student was placed on a course's waitlist.
+        DROPPED,        // A student was removed from a course.
+        PROMOTED        // A student was moved from the waitlist to enrolled.
+    }
+
+    private final long sequence;
+    // The order in which the event was published, starting at 1.
+    private final Type type;
+    // The kind of change this event describes.
+    private final String courseCode;
+    // The code of the course the change applies to.
+    private final StudentInfo student;
+    // The student affected, or null for course level events.
+
+    /**
+     * Constructor to create an EnrollmentEvent with the given details.
+     *
+     * @param sequence The publication order of the event.
+     * @param type The kind of change.
+     * @param courseCode The code of the course that changed.
+     * @param student The student affected, or null for course events.
+     */
+    public EnrollmentEvent(long sequence, Type type, String courseCode,
+                           StudentInfo student) {
+        this.sequence = sequence;
+        this.type = type;
+        this.courseCode = courseCode;
+        this.student = student;
+    }
+
+    /**
+     * Gets the sequence number of the event. Gaps in the sequence seen by
+     * a listener mean events were dropped from its buffer.
+     *
+     * @return The publication order of the event.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the kind of change.
+     *
+     * @return The type of the event.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the code of the course that changed.
+     *
+     * @return The course code.
+     */
+    public String getCourseCode() {
+        return courseCode;
+    }
+
+    /**
+     * Gets the student affected by the change.
+     *
+     * @return The student, or null for COURSE_ADDED and COURSE_REMOVED.
+     */
+    public StudentInfo getStudent() {
+        return student;
+    }
+
+    /**
+     * Convert the event to a string representation.
+     *
+     * @return A string describing the event in the format:
+     *         "#<sequence> <type> <courseCode> [student]"
+     */
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + type + " " + courseCode +
+                (student != null ? " " + student : "");
+    }
+}
@@ -0,0 +1,302 @@
+/**
+ * Name: Manasvi Bhatnagar
+ *
+ **/
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The EnrollmentEventFeed class publishes EnrollmentEvents to subscribed
+ * listeners. Each subscriber gets its own bounded buffer, and events are
+ * handed over in batches on a separate executor, so a slow listener never
+ * holds up the thread that is changing enrollments.
+ */
+public class EnrollmentEventFeed {
+    private static final int DEFAULT_BUFFER_CAPACITY = 1024;
+    // Number of events buffered per subscriber by default.
+    private static final int DEFAULT_MAX_BATCH_SIZE = 64;
+    // Largest batch handed to a listener at once by default.
+
+    /**
+     * What to do with a new event when a subscriber's buffer is full.
+     */
+    public enum OverflowPolicy {
+        DROP_NEWEST, // Discard the new event.
+        DROP_OLDEST, // Discard the oldest buffered event to make room.
+        BLOCK        // Wait for room (backpressure); drops on delivery threads.
+    }
+
+    private final Executor executor;
+    // Runs the delivery of batches to listeners.
+    private final List<Subscription> subscriptions;
+    // The current subscribers.
+    private final AtomicLong sequence;
+    // The sequence number of the last published event.
+    private final ThreadLocal<Boolean> delivering;
+    // True on a thread that is running a delivery for this feed.
+
+    /**
+     * Constructor to create a feed that delivers on its own pool of
+     * daemon threads.
+     */
+    public EnrollmentEventFeed() {
+        this(newDaemonExecutor());
+    }
+
+    /**
+     * Constructor to create a feed that delivers on the given executor.
+     *
+     * @param executor The executor used to call listeners.
+     */
+    public EnrollmentEventFeed(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must not be null.");
+        }
+        this.executor = executor;
+        this.subscriptions = new CopyOnWriteArrayList<>();
+        this.sequence = new AtomicLong();
+        this.delivering = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    }
+
+    /**
+     * Creates the default executor. Threads are daemons so an idle feed
+     * never keeps the program from exiting.
+     *
+     * @return A cached thread pool of daemon threads.
+     */
+    private static ExecutorService newDaemonExecutor() {
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "enrollment-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Subscribes a listener with the default buffer size, batch size and
+     * the DROP_NEWEST policy.
+     *
+     * @param listener The listener to be notified.
+     * @return The subscription, which can be used to unsubscribe.
+     */
+    public Subscription subscribe(EnrollmentListener listener) {
+        return subscribe(listener, DEFAULT_BUFFER_CAPACITY,
+                DEFAULT_MAX_BATCH_SIZE, OverflowPolicy.DROP_NEWEST);
+    }
+
+    /**
+     * Subscribes a listener.
+     *
+     * @param listener The listener to be notified.
+     * @param bufferCapacity The number of events buffered for the listener.
+     * @param maxBatchSize The largest batch handed to the listener at once.
+     * @param policy What to do when the buffer is full.
+     * @return The subscription, which can be used to unsubscribe.
+     * @throws IllegalArgumentException If the listener or policy is null,
+     *                                  or if a size is non-positive.
+     */
+    public Subscription subscribe(EnrollmentListener listener,
+                                  int bufferCapacity, int maxBatchSize,
+                                  OverflowPolicy policy) {
+        if (listener == null || policy == null) {
+            throw new IllegalArgumentException
+                    ("Listener and policy must not be null.");
+        }
+        if (bufferCapacity <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException
+                    ("Buffer capacity and batch size must be positive.");
+        }
+        Subscription subscription = new Subscription(listener,
+                bufferCapacity, maxBatchSize, policy);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Checks if anyone is listening, so callers can skip building events.
+     *
+     * @return True if there is at least one subscriber, false otherwise.
+     */
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * Publishes an event to every subscriber. Does nothing if there are
+     * no subscribers.
+     *
+     * @param type The kind of change.
+     * @param courseCode The code of the course that changed.
+     * @param student The student affected, or null for course events.
+     */
+    public void publish(EnrollmentEvent.Type type, String courseCode,
+                        StudentInfo student) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        EnrollmentEvent event = new EnrollmentEvent(
+                sequence.incrementAndGet(), type, courseCode, student);
+        for (Subscription subscription : subscriptions) {
+            subscription.enqueue(event);
+        }
+    }
+
+    /**
+     * A single listener's buffer and delivery state.
+     */
+    public class Subscription {
+        private final EnrollmentListener listener;
+        // The listener events are delivered to.
+        private final ArrayBlockingQueue<EnrollmentEvent> buffer;
+        // Events waiting to be delivered.
+        private final int maxBatchSize;
+        // Largest batch handed to the listener at once.
+        private final OverflowPolicy policy;
+        // What to do when the buffer is full.
+        private final AtomicBoolean scheduled;
+        // True while a delivery task is queued or running.
+        private final AtomicLong dropped;
+        // Number of events discarded instead of delivered.
+        private volatile boolean active;
+        // False once the subscription has been cancelled.
+
+        Subscription(EnrollmentListener listener, int bufferCapacity,
+                     int maxBatchSize, OverflowPolicy policy) {
+            this.listener = listener;
+            this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+            this.maxBatchSize = maxBatchSize;
+            this.policy = policy;
+            this.scheduled = new AtomicBoolean();
+            this.dropped = new AtomicLong();
+            this.active = true;
+        }
+
+        /**
+         * Gets the number of events discarded because the buffer was full
+         * or the executor rejected the delivery task.
+         *
+         * @return The number of dropped events.
+         */
+        public long getDroppedCount() {
+            return dropped.get();
+        }
+
+        /**
+         * Stops delivery to the listener and discards buffered events.
+         */
+        public void cancel() {
+            active = false;
+            subscriptions.remove(this);
+            buffer.clear();
+        }
+
+        /**
+         * Buffers an event according to the overflow policy and makes sure
+         * a delivery task is scheduled.
+         *
+         * @param event The event to buffer.
+         */
+        private void enqueue(EnrollmentEvent event) {
+            if (!buffer.offer(event)) {
+                switch (policy) {
+                    case DROP_OLDEST:
+                        while (!buffer.offer(event)) {
+                            if (buffer.poll() != null) {
+                                dropped.incrementAndGet();
+                            }
+                        }
+                        break;
+                    case BLOCK:
+                        // A listener publishing from any delivery thread of
+                        // this feed could hold the only executor thread
+                        // that can drain this buffer, so never wait there.
+                        if (delivering.get()) {
+                            dropped.incrementAndGet();
+                            break;
+                        }
+                        try {
+                            buffer.put(event);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            dropped.incrementAndGet();
+                        }
+                        break;
+                    default: // DROP_NEWEST
+                        dropped.incrementAndGet();
+                        break;
+                }
+            }
+            schedule();
+        }
+
+        /**
+         * Hands a delivery task to the executor unless one is pending. If
+         * the executor rejects it, the buffered events are dropped so that
+         * publishing never fails and BLOCK never waits on a task that will
+         * not run.
+         */
+        private void schedule() {
+            if (active && scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::deliver);
+                } catch (RejectedExecutionException e) {
+                    int lost = 0;
+                    while (buffer.poll() != null) {
+                        lost++;
+                    }
+                    dropped.addAndGet(lost);
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        /**
+         * Drains the buffer into the listener. Runs on the executor, and
+         * only one instance runs at a time per subscription.
+         */
+        private void deliver() {
+            delivering.set(Boolean.TRUE);
+            try {
+                deliverBatches();
+            } finally {
+                delivering.set(Boolean.FALSE);
+                scheduled.set(false);
+            }
+            // An event may have arrived after the last drain but before
+            // the flag was cleared; pick it up here if so.
+            if (active && !buffer.isEmpty()) {
+                schedule();
+            }
+        }
+
+        /**
+         * Hands batches to the listener until the buffer is empty.
+         */
+        private void deliverBatches() {
+            List<EnrollmentEvent> batch = new ArrayList<>(maxBatchSize);
+            while (active) {
+                buffer.drainTo(batch, maxBatchSize);
+                if (batch.isEmpty()) {
+                    return;
+                }
+                try {
+                    listener.onEvents(Collections.unmodifiableList(
+                            new ArrayList<>(batch)));
+                } catch (RuntimeException e) {
+                    System.err.println("Enrollment listener failed: "
+                            + e.getMessage());
+                }
+                batch.clear();
+            }
+        }
+    }
+}
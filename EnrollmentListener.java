@@ -0,0 +1,22 @@
+/**
+ * Name: Manasvi Bhatnagar
+ *
+ **/
+import java.util.List;
+
+/**
+ * The EnrollmentListener interface is implemented by anything that wants
+ * to be told about changes made by the CourseManager.
+ */
+public interface EnrollmentListener {
+    /**
+     * Called on the feed's executor with the next batch of events for this
+     * listener, in publication order. Never called concurrently for the
+     * same subscription. A listener may call back into the CourseManager.
+     * Events published that way never wait for space: if a BLOCK
+     * subscriber's buffer is full they are dropped and counted instead.
+     *
+     * @param events The batch of events. Never empty.
+     */
+    void onEvents(List<EnrollmentEvent> events);
+}
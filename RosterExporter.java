@@ -0,0 +1,230 @@
+/**
+ * Name: Manasvi Bhatnagar
+ *
+ **/
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.PriorityQueue;
+
+/**
+ * The RosterExporter class writes rosters and the course catalog of a
+ * CourseManager to a channel, as CSV or in the compact binary snapshot
+ * format. Everything is encoded straight into one reusable ByteBuffer, so
+ * an export uses the same small amount of memory however many students
+ * there are, and creates no objects per student. Because every export
+ * shares that buffer, a RosterExporter must only be used by one thread at
+ * a time; give each thread its own exporter. Rosters of courses opened
+ * from a CatalogSnapshot that have not been used yet are read straight
+ * from the snapshot and are not loaded into the CourseManager.
+ *
+ * Roster CSV columns:  course_code,status,student_id,name,year,honors
+ * Catalog CSV columns: course_code,title,max_capacity,has_waitlist,
+ *                      waitlist_capacity,enrolled,waitlisted
+ */
+public class RosterExporter {
+    private static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+    // Size of the export buffer by default.
+    private static final String ROSTER_HEADER =
+            "course_code,status,student_id,name,year,honors\n";
+    // First line of a roster CSV export.
+    private static final String CATALOG_HEADER = "course_code,title,"
+            + "max_capacity,has_waitlist,waitlist_capacity,enrolled,"
+            + "waitlisted\n";
+    // First line of a catalog CSV export.
+
+    private final ByteBuffer buffer;
+    // Reused by every export made with this exporter; not thread-safe.
+
+    /**
+     * Constructor to create a RosterExporter with the default buffer size.
+     */
+    public RosterExporter() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor to create a RosterExporter.
+     *
+     * @param bufferSize The size of the export buffer in bytes.
+     * @throws IllegalArgumentException If bufferSize is less than 64.
+     */
+    public RosterExporter(int bufferSize) {
+        if (bufferSize < 64) {
+            throw new IllegalArgumentException
+                    ("Buffer size must be at least 64 bytes.");
+        }
+        // A direct buffer lets a FileChannel write it without copying.
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Writes the enrolled and waitlisted students of every course as CSV.
+     *
+     * @param manager The CourseManager to export.
+     * @param channel The channel to write to. It is not closed.
+     * @throws IOException If the channel cannot be written.
+     */
+    public void writeRosters(CourseManager manager,
+                             WritableByteChannel channel) throws IOException {
+        ChannelEncoder encoder = new ChannelEncoder(buffer, channel);
+        encoder.putUtf8(ROSTER_HEADER);
+        for (int i = 0; i < manager.getCourseCount(); i++) {
+            putRoster(encoder, manager, i);
+        }
+        encoder.flush();
+    }
+
+    /**
+     * Writes the enrolled and waitlisted students of one course as CSV.
+     *
+     * @param manager The CourseManager to export from.
+     * @param courseCode The course code of the course to export.
+     * @param channel The channel to write to. It is not closed.
+     * @throws Exception If the course is not found or the channel
+     *                   cannot be written.
+     */
+    public void writeRoster(CourseManager manager, String courseCode,
+                            WritableByteChannel channel) throws Exception {
+        int index = manager.findCourseIndex(courseCode);
+        if (index == -1) {
+            throw new Exception("Course not found.");
+        }
+        ChannelEncoder encoder = new ChannelEncoder(buffer, channel);
+        encoder.putUtf8(ROSTER_HEADER);
+        putRoster(encoder, manager, index);
+        encoder.flush();
+    }
+
+    /**
+     * Writes the course catalog as CSV, one line per course with its
+     * enrolled and waitlisted counts.
+     *
+     * @param manager The CourseManager to export.
+     * @param channel The channel to write to. It is not closed.
+     * @throws IOException If the channel cannot be written.
+     */
+    public void writeCatalog(CourseManager manager,
+                             WritableByteChannel channel) throws IOException {
+        ChannelEncoder encoder = new ChannelEncoder(buffer, channel);
+        encoder.putUtf8(CATALOG_HEADER);
+        for (int i = 0; i < manager.getCourseCount(); i++) {
+            Course course = manager.getCourseAt(i);
+            encoder.putCsvField(course.getCourseCode());
+            encoder.putByte(',');
+            encoder.putCsvField(course.getTitle());
+            encoder.putByte(',');
+            encoder.putDecimal(course.getMaxCapacity());
+            encoder.putUtf8(course.isHasWaitlist() ? ",true," : ",false,");
+            encoder.putDecimal(course.getWaitlistCapacity());
+            encoder.putByte(',');
+            CatalogSnapshot.RosterCursor unloaded =
+                    manager.getUnloadedRosterAt(i);
+            if (unloaded != null) {
+                encoder.putDecimal(unloaded.getEnrolledCount());
+                encoder.putByte(',');
+                encoder.putDecimal(unloaded.getWaitlistCount());
+            } else {
+                encoder.putDecimal(manager.getEnrolledAt(i).size());
+                encoder.putByte(',');
+                encoder.putDecimal(manager.getWaitlistAt(i).size());
+            }
+            encoder.putByte('\n');
+        }
+        encoder.flush();
+    }
+
+    /**
+     * Writes the catalog and all rosters in the compact binary format read
+     * by CatalogSnapshot.open. Rosters still in a snapshot are copied
+     * without being decoded.
+     *
+     * @param manager The CourseManager to export.
+     * @param channel The channel to write to. It is not closed.
+     * @throws IOException If the channel cannot be written.
+     */
+    public void writeBinary(CourseManager manager,
+                            WritableByteChannel channel) throws IOException {
+        CatalogSnapshot.write(manager, new ChannelEncoder(buffer, channel));
+    }
+
+    /**
+     * Encodes the CSV lines for one course's enrolled and waitlisted
+     * students.
+     *
+     * @param encoder The encoder to write with.
+     * @param manager The CourseManager to export from.
+     * @param index The position of the course in the CourseManager.
+     * @throws IOException If the rosters cannot be read or the channel
+     *                     cannot be written.
+     */
+    private static void putRoster(ChannelEncoder encoder,
+                                  CourseManager manager, int index)
+            throws IOException {
+        String courseCode = manager.getCourseAt(index).getCourseCode();
+        CatalogSnapshot.RosterCursor unloaded =
+                manager.getUnloadedRosterAt(index);
+        if (unloaded != null) {
+            putStudents(encoder, courseCode, unloaded);
+            return;
+        }
+        putStudents(encoder, courseCode, ",enrolled,",
+                manager.getEnrolledAt(index));
+        putStudents(encoder, courseCode, ",waitlisted,",
+                manager.getWaitlistAt(index));
+    }
+
+    /**
+     * Encodes one CSV line per student in a roster queue.
+     *
+     * @param encoder The encoder to write with.
+     * @param courseCode The course code for the first column.
+     * @param status The status column with its surrounding commas.
+     * @param students The students to encode.
+     * @throws IOException If the channel cannot be written.
+     */
+    private static void putStudents(ChannelEncoder encoder, String courseCode,
+                                    String status,
+                                    PriorityQueue<StudentInfo> students)
+            throws IOException {
+        for (StudentInfo student : students) {
+            encoder.putCsvField(courseCode);
+            encoder.putUtf8(status);
+            encoder.putCsvField(student.getStudentID());
+            encoder.putByte(',');
+            encoder.putCsvField(student.getName());
+            encoder.putByte(',');
+            encoder.putDecimal(student.getYear());
+            encoder.putUtf8(student.isHonors() ? ",true\n" : ",false\n");
+        }
+    }
+
+    /**
+     * Encodes one CSV line per student in a roster that is still in a
+     * snapshot. Names and IDs are copied from the mapped file as UTF-8
+     * bytes, so nothing is decoded or kept.
+     *
+     * @param encoder The encoder to write with.
+     * @param courseCode The course code for the first column.
+     * @param cursor A cursor over the course's snapshot rosters.
+     * @throws IOException If the channel cannot be written.
+     */
+    private static void putStudents(ChannelEncoder encoder, String courseCode,
+                                    CatalogSnapshot.RosterCursor cursor)
+            throws IOException {
+        ByteBuffer data = cursor.getData();
+        while (cursor.next()) {
+            encoder.putCsvField(courseCode);
+            encoder.putUtf8(cursor.isWaitlisted()
+                    ? ",waitlisted," : ",enrolled,");
+            encoder.putCsvField(data, cursor.getStudentIDOffset(),
+                    cursor.getStudentIDLength());
+            encoder.putByte(',');
+            encoder.putCsvField(data, cursor.getNameOffset(),
+                    cursor.getNameLength());
+            encoder.putByte(',');
+            encoder.putDecimal(cursor.getYear());
+            encoder.putUtf8(cursor.isHonors() ? ",true\n" : ",false\n");
+        }
+    }
+}